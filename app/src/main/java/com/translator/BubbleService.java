@@ -4,6 +4,8 @@ import android.app.Notification;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.app.Service;
+import android.app.usage.UsageEvents;
+import android.app.usage.UsageStatsManager;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Bitmap;
@@ -12,6 +14,7 @@ import android.graphics.PixelFormat;
 import android.graphics.Rect;
 import android.hardware.display.DisplayManager;
 import android.hardware.display.VirtualDisplay;
+import android.hardware.input.InputManager;
 import android.media.Image;
 import android.media.ImageReader;
 import android.media.projection.MediaProjection;
@@ -20,8 +23,10 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
+import android.text.StaticLayout;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
@@ -42,9 +47,6 @@ import com.google.mlkit.common.model.DownloadConditions;
 import com.google.mlkit.common.model.RemoteModelManager;
 import com.google.mlkit.nl.languageid.LanguageIdentification;
 import com.google.mlkit.nl.languageid.LanguageIdentifier;
-import com.google.mlkit.nl.translate.Translation;
-import com.google.mlkit.nl.translate.Translator;
-import com.google.mlkit.nl.translate.TranslatorOptions;
 import com.google.mlkit.nl.translate.TranslateLanguage;
 import com.google.android.gms.tasks.OnSuccessListener;
 import com.google.android.gms.tasks.Task;
@@ -53,14 +55,27 @@ import com.google.mlkit.vision.text.Text;
 import com.google.mlkit.vision.text.TextRecognition;
 import com.google.mlkit.vision.text.TextRecognizer;
 import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+import com.translator.pipeline.Callback;
+import com.translator.pipeline.CapturePipeline;
+import com.translator.pipeline.RecognizedBlock;
+import com.translator.pipeline.ScreenProfile;
+import com.translator.pipeline.TextRegion;
+import com.translator.pipeline.TranslationRenderer;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
 public class BubbleService extends Service {
     private static final String TAG = "BubbleService";
     private static final String CHANNEL_ID = "BubbleServiceChannel";
     private static final int NOTIFICATION_ID = 1;
     private static final int CAPTURE_INTERVAL = 1000; // 1 seconde entre chaque capture
+    private static final long FOREGROUND_LOOKUP_WINDOW = 60 * 60 * 1000; // 1 heure d'historique d'utilisation
+    private static final int PROFILE_SAVE_DELAY = 2000;
+    private static final int TRANSLATION_TEXT_SIZE_SP = 16;
+    private static final int TRANSLATION_PADDING_H = 24;
+    private static final int TRANSLATION_PADDING_V = 12;
 
     private WindowManager windowManager;
     private View bubbleView;
@@ -70,12 +85,26 @@ public class BubbleService extends Service {
     private VirtualDisplay virtualDisplay;
     private ImageReader imageReader;
     private TextRecognizer textRecognizer;
-    private Translator translator;
+    private TranslatorPool translatorPool;
     private LanguageIdentifier languageIdentifier;
     private Handler handler;
     private String targetLanguage = "en";
-    private boolean isProcessingImage = false;
-    private long lastProcessingTime = 0;
+    private boolean destroyed = false;
+    private int displayedCaptureId = 0;
+    private CapturePipeline<Bitmap> capturePipeline;
+    private TranslationRenderer<StaticLayout> translationRenderer;
+    private ScreenProfileStore profileStore;
+    private TranslationLayoutCache layoutCache;
+    private TranslationOverlayView translationOverlay;
+    private float translationTextSize;
+    private String lastForegroundPackage;
+    private long lastForegroundQueryTime = 0;
+    private final Runnable hideTranslationsRunnable = this::hideTranslations;
+    private final Runnable saveProfilesRunnable = () -> {
+        if (profileStore != null && !destroyed) {
+            profileStore.saveAsync();
+        }
+    };
 
     @Override
     public void onCreate() {
@@ -93,6 +122,19 @@ public class BubbleService extends Service {
             
             setupTextRecognizer();
             setupLanguageIdentifier();
+            translatorPool = new TranslatorPool();
+            
+            profileStore = new ScreenProfileStore(this);
+            profileStore.load();
+            
+            layoutCache = new TranslationLayoutCache(handler);
+            translationTextSize = TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_SP, TRANSLATION_TEXT_SIZE_SP, getResources().getDisplayMetrics());
+            translationRenderer = new TranslationRenderer<>(
+                layoutCache, this::drawTranslation, TRANSLATION_PADDING_H, translationTextSize, Color.WHITE);
+            
+            capturePipeline = new CapturePipeline<>(
+                this::recognizeText, this::identifyLanguage, translatorPool, new PipelineHost(), targetLanguage);
             
             showToast("Service démarré");
         } catch (Exception e) {
@@ -121,29 +163,6 @@ public class BubbleService extends Service {
         languageIdentifier = LanguageIdentification.getClient();
     }
 
-    private void setupTranslator(String sourceLanguage) {
-        Log.d(TAG, "setupTranslator: Setting up translator from " + sourceLanguage + " to " + targetLanguage);
-        if (translator != null) {
-            translator.close();
-        }
-        
-        TranslatorOptions options = new TranslatorOptions.Builder()
-            .setSourceLanguage(sourceLanguage)
-            .setTargetLanguage(targetLanguage)
-            .build();
-            
-        translator = Translation.getClient(options);
-        
-        translator.downloadModelIfNeeded()
-            .addOnSuccessListener(unused -> {
-                Log.d(TAG, "setupTranslator: Model downloaded successfully");
-            })
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "setupTranslator: Failed to download model", e);
-                showToast("Erreur de téléchargement du modèle de traduction");
-            });
-    }
-
     private void createBubbleView() {
         try {
             bubbleView = LayoutInflater.from(this).inflate(R.layout.bubble_layout, null);
@@ -299,6 +318,9 @@ public class BubbleService extends Service {
                 int resultCode = intent.getIntExtra("result_code", 0);
                 Intent data = intent.getParcelableExtra("projection_data");
                 targetLanguage = intent.getStringExtra("target_language");
+                if (capturePipeline != null) {
+                    capturePipeline.setTargetLanguage(targetLanguage);
+                }
                 
                 Log.d(TAG, "onStartCommand: resultCode=" + resultCode + ", data=" + (data != null) + ", language=" + targetLanguage);
                 
@@ -319,35 +341,27 @@ public class BubbleService extends Service {
     }
 
     private void captureAndTranslate() {
-        if (isProcessingImage) {
-            long currentTime = System.currentTimeMillis();
-            if (lastProcessingTime > 0 && currentTime - lastProcessingTime > 5000) {
-                Log.d(TAG, "captureAndTranslate: Forcing reset of processing flag");
-                isProcessingImage = false;
-                lastProcessingTime = 0;
-            } else {
-                Log.d(TAG, "captureAndTranslate: Already processing image");
-                return;
-            }
+        if (capturePipeline == null || !capturePipeline.beginCapture(System.currentTimeMillis())) {
+            return;
         }
         
         if (imageReader == null || virtualDisplay == null) {
             Log.e(TAG, "captureAndTranslate: ImageReader or VirtualDisplay not ready");
             showToast("Service de capture non initialisé");
+            capturePipeline.abortCapture();
             return;
         }
-
-        isProcessingImage = true;
-        lastProcessingTime = System.currentTimeMillis();
         
         handler.postDelayed(() -> {
+            if (destroyed) {
+                return;
+            }
             try {
                 Image image = imageReader.acquireLatestImage();
                 if (image == null) {
                     Log.e(TAG, "captureAndTranslate: Failed to acquire image");
                     showToast("Erreur lors de la capture d'écran");
-                    isProcessingImage = false;
-                    lastProcessingTime = 0;
+                    capturePipeline.abortCapture();
                     return;
                 }
 
@@ -357,20 +371,18 @@ public class BubbleService extends Service {
                 if (originalBitmap == null) {
                     Log.e(TAG, "captureAndTranslate: Failed to convert image to bitmap");
                     showToast("Erreur lors de la conversion de l'image");
-                    isProcessingImage = false;
-                    lastProcessingTime = 0;
+                    capturePipeline.abortCapture();
                     return;
                 }
 
-                processImage(originalBitmap);
+                capturePipeline.process(originalBitmap, originalBitmap.getWidth(), originalBitmap.getHeight(), resolveProfile());
                 
             } catch (Exception e) {
                 Log.e(TAG, "captureAndTranslate: Error", e);
                 showToast("Erreur lors de la capture");
-                isProcessingImage = false;
-                lastProcessingTime = 0;
+                capturePipeline.abortCapture();
             }
-        }, 100);
+        }, CapturePipeline.CAPTURE_DELAY_MS);
     }
 
     private Bitmap imageToBitmap(Image image) {
@@ -394,130 +406,228 @@ public class BubbleService extends Service {
         return Bitmap.createBitmap(bitmap, 0, 0, image.getWidth(), image.getHeight());
     }
 
-    private void processImage(Bitmap bitmap) {
-        if (bitmap == null || textRecognizer == null) {
+    @Nullable
+    private ScreenProfile resolveProfile() {
+        if (profileStore == null || targetLanguage == null) {
+            return null;
+        }
+        String packageName = getForegroundPackage();
+        if (packageName == null) {
+            return null;
+        }
+        Log.d(TAG, "resolveProfile: Using profile for " + packageName);
+        return profileStore.getProfile(packageName, targetLanguage);
+    }
+
+    @Nullable
+    private String getForegroundPackage() {
+        // Nécessite l'accès aux données d'utilisation ; sans lui, aucun événement n'est retourné
+        UsageStatsManager usageStatsManager = (UsageStatsManager) getSystemService(Context.USAGE_STATS_SERVICE);
+        if (usageStatsManager == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        long since = lastForegroundQueryTime > 0 ? lastForegroundQueryTime : now - FOREGROUND_LOOKUP_WINDOW;
+        int foregroundEventType = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+            ? UsageEvents.Event.ACTIVITY_RESUMED
+            : UsageEvents.Event.MOVE_TO_FOREGROUND;
+        UsageEvents events = usageStatsManager.queryEvents(since, now);
+        UsageEvents.Event event = new UsageEvents.Event();
+        while (events.hasNextEvent()) {
+            events.getNextEvent(event);
+            if (event.getEventType() == foregroundEventType
+                    && !getPackageName().equals(event.getPackageName())) {
+                lastForegroundPackage = event.getPackageName();
+            }
+        }
+        lastForegroundQueryTime = now;
+        return lastForegroundPackage;
+    }
+
+    private void recognizeText(Bitmap bitmap, @Nullable TextRegion scanBounds, Callback<List<RecognizedBlock>> callback) {
+        if (textRecognizer == null) {
             Log.e(TAG, "processImage: Invalid bitmap or text recognizer");
-            isProcessingImage = false;
-            lastProcessingTime = 0;
+            callback.onFailure(new IllegalStateException("Text recognizer not ready"));
             return;
         }
 
-        InputImage inputImage = InputImage.fromBitmap(bitmap, 0);
-        Log.d(TAG, "processImage: Starting text recognition");
-        
-        textRecognizer.process(inputImage)
+        Bitmap source = scanBounds != null
+            ? Bitmap.createBitmap(bitmap, scanBounds.left, scanBounds.top, scanBounds.width(), scanBounds.height())
+            : bitmap;
+        textRecognizer.process(InputImage.fromBitmap(source, 0))
             .addOnSuccessListener(visionText -> {
-                boolean hasDetectedText = false;
-                Log.d(TAG, "processImage: Text recognition success");
-                
+                if (source != bitmap) {
+                    source.recycle();
+                }
+                List<RecognizedBlock> blocks = new ArrayList<>();
                 for (Text.TextBlock block : visionText.getTextBlocks()) {
                     Rect blockRect = block.getBoundingBox();
-                    String blockText = block.getText();
-                    if (blockRect != null && !blockText.isEmpty()) {
-                        hasDetectedText = true;
-                        Log.d(TAG, "processImage: Found text block: " + blockText + " at position: " + blockRect);
-                        translateTextBlock(blockText, blockRect);
+                    if (blockRect != null) {
+                        TextRegion region = new TextRegion(blockRect.left, blockRect.top, blockRect.right, blockRect.bottom);
+                        blocks.add(new RecognizedBlock(block.getText(), region));
                     }
                 }
-                
-                if (!hasDetectedText) {
-                    Log.d(TAG, "processImage: No text detected");
-                    showToast("Aucun texte détecté");
-                }
-                
-                isProcessingImage = false;
-                lastProcessingTime = 0;
-                bitmap.recycle();
+                callback.onSuccess(blocks);
             })
             .addOnFailureListener(e -> {
-                Log.e(TAG, "processImage: Text recognition failed", e);
-                showToast("Erreur de reconnaissance du texte");
-                bitmap.recycle();
-                isProcessingImage = false;
-                lastProcessingTime = 0;
+                if (source != bitmap) {
+                    source.recycle();
+                }
+                callback.onFailure(e);
             });
     }
 
-    private void translateTextBlock(String text, Rect blockRect) {
-        if (translator == null) {
-            Log.e(TAG, "translateTextBlock: Translator is null");
-            setupTranslator("en");
+    private void identifyLanguage(String text, Callback<String> callback) {
+        languageIdentifier.identifyLanguage(text)
+            .addOnSuccessListener(languageTag -> {
+                String sourceLanguage = TranslateLanguage.fromLanguageTag(languageTag);
+                if (sourceLanguage == null) {
+                    Log.d(TAG, "identifyLanguage: Unsupported or unknown language: " + languageTag);
+                }
+                callback.onSuccess(sourceLanguage);
+            })
+            .addOnFailureListener(callback::onFailure);
+    }
+
+    private void scheduleProfileSave() {
+        if (destroyed) {
             return;
         }
+        handler.removeCallbacks(saveProfilesRunnable);
+        handler.postDelayed(saveProfilesRunnable, PROFILE_SAVE_DELAY);
+    }
 
-        Log.d(TAG, "translateTextBlock: Starting translation for text: " + text);
-        translator.translate(text)
-            .addOnSuccessListener(translatedText -> {
-                Log.d(TAG, "translateTextBlock: Translation success: " + translatedText);
-                handler.post(() -> {
-                    TextView translationView = new TextView(this);
-                    translationView.setText(translatedText);
-                    translationView.setTextColor(Color.WHITE);
-                    translationView.setBackground(ContextCompat.getDrawable(this, R.drawable.modern_translation_background));
-                    translationView.setPadding(24, 12, 24, 12);
-                    translationView.setTextSize(16);
-                    translationView.setElevation(8f);
-                    translationView.setAlpha(0f);
-                    
-                    // Ajout d'une ombre portée
-                    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
-                        translationView.setOutlineAmbientShadowColor(Color.BLACK);
-                        translationView.setOutlineSpotShadowColor(Color.BLACK);
-                    }
+    // Branche le pipeline sur le service : rendu, sauvegarde des profils, messages et logs
+    private class PipelineHost implements CapturePipeline.Host<Bitmap> {
+        @Override
+        public void onTextRecognized(int captureId, int blockCount) {
+            // Les traductions de la capture précédente ne correspondent plus à l'écran
+            displayedCaptureId = captureId;
+            if (translationOverlay != null) {
+                translationOverlay.clearLabels();
+            }
+        }
 
-                    WindowManager.LayoutParams params = new WindowManager.LayoutParams(
-                        WindowManager.LayoutParams.WRAP_CONTENT,
-                        WindowManager.LayoutParams.WRAP_CONTENT,
-                        WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY,
-                        WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
-                        WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE,
-                        PixelFormat.TRANSLUCENT
-                    );
-
-                    params.gravity = Gravity.TOP | Gravity.START;
-                    params.x = blockRect.left;
-                    params.y = blockRect.top - 10; // Légèrement au-dessus du texte original
-
-                    try {
-                        windowManager.addView(translationView, params);
-                        Log.d(TAG, "translateTextBlock: Added translation view at position: " + params.x + ", " + params.y);
-                        
-                        // Animation d'apparition
-                        translationView.animate()
-                            .alpha(1f)
-                            .setDuration(200)
-                            .setInterpolator(new DecelerateInterpolator())
-                            .start();
-
-                        // Animation de disparition et suppression après 5 secondes
-                        handler.postDelayed(() -> {
-                            try {
-                                translationView.animate()
-                                    .alpha(0f)
-                                    .setDuration(200)
-                                    .setInterpolator(new AccelerateInterpolator())
-                                    .withEndAction(() -> {
-                                        try {
-                                            windowManager.removeView(translationView);
-                                            Log.d(TAG, "translateTextBlock: Removed translation view");
-                                        } catch (Exception e) {
-                                            Log.e(TAG, "Error removing translation view", e);
-                                        }
-                                    })
-                                    .start();
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error animating translation view", e);
-                            }
-                        }, 5000);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error adding translation view", e);
-                    }
-                });
-            })
-            .addOnFailureListener(e -> {
-                Log.e(TAG, "Translation failed", e);
-                showToast("Erreur de traduction");
-            });
+        @Override
+        public void render(int captureId, String translatedText, TextRegion region) {
+            if (captureId != displayedCaptureId) {
+                return;
+            }
+            // La mise en page du texte est calculée hors du thread principal puis réutilisée
+            translationRenderer.show(captureId, translatedText, region, getResources().getDisplayMetrics().widthPixels);
+        }
+
+        @Override
+        public void onProfileChanged(ScreenProfile profile) {
+            scheduleProfileSave();
+        }
+
+        @Override
+        public void releaseFrame(Bitmap frame) {
+            frame.recycle();
+        }
+
+        @Override
+        public void showMessage(String message) {
+            showToast(message);
+        }
+
+        @Override
+        public void logDebug(String message) {
+            Log.d(TAG, message);
+        }
+
+        @Override
+        public void logError(String message, Exception e) {
+            Log.e(TAG, message, e);
+        }
+    }
+
+    private void drawTranslation(int captureId, StaticLayout layout, TextRegion region) {
+        // Une mise en page terminée après une nouvelle capture viserait l'ancien écran
+        if (destroyed || captureId != displayedCaptureId || !ensureTranslationOverlay()) {
+            return;
+        }
+
+        translationOverlay.addLabel(layout, region.left, region.top - 10); // Légèrement au-dessus du texte original
+        if (translationOverlay.getVisibility() != View.VISIBLE) {
+            translationOverlay.setAlpha(0f);
+            translationOverlay.setVisibility(View.VISIBLE);
+        }
+
+        // Animation d'apparition, une seule pour toutes les traductions
+        translationOverlay.animate()
+            .alpha(1f)
+            .setDuration(200)
+            .setInterpolator(new DecelerateInterpolator())
+            .withLayer()
+            .start();
+
+        // Disparition 5 secondes après la dernière traduction affichée
+        handler.removeCallbacks(hideTranslationsRunnable);
+        handler.postDelayed(hideTranslationsRunnable, 5000);
+    }
+
+    private boolean ensureTranslationOverlay() {
+        if (translationOverlay != null) {
+            return true;
+        }
+
+        TranslationOverlayView overlay = new TranslationOverlayView(
+            this,
+            ContextCompat.getDrawable(this, R.drawable.modern_translation_background),
+            TRANSLATION_PADDING_H,
+            TRANSLATION_PADDING_V
+        );
+        overlay.setVisibility(View.GONE);
+
+        WindowManager.LayoutParams params = new WindowManager.LayoutParams(
+            WindowManager.LayoutParams.MATCH_PARENT,
+            WindowManager.LayoutParams.MATCH_PARENT,
+            WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY,
+            WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE |
+            WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE |
+            WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN |
+            WindowManager.LayoutParams.FLAG_LAYOUT_NO_LIMITS,
+            PixelFormat.TRANSLUCENT
+        );
+        params.gravity = Gravity.TOP | Gravity.START;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            // Au-delà de cette opacité, Android 12+ bloque les touches destinées à l'application en dessous
+            InputManager inputManager = (InputManager) getSystemService(Context.INPUT_SERVICE);
+            params.alpha = inputManager.getMaximumObscuringOpacityForTouch();
+        }
+
+        try {
+            windowManager.addView(overlay, params);
+            translationOverlay = overlay;
+            Log.d(TAG, "ensureTranslationOverlay: Added translation overlay");
+            return true;
+        } catch (Exception e) {
+            Log.e(TAG, "Error adding translation overlay", e);
+            return false;
+        }
+    }
+
+    private void hideTranslations() {
+        if (translationOverlay == null) {
+            return;
+        }
+        try {
+            translationOverlay.animate()
+                .alpha(0f)
+                .setDuration(200)
+                .setInterpolator(new AccelerateInterpolator())
+                .withLayer()
+                .withEndAction(() -> {
+                    translationOverlay.clearLabels();
+                    translationOverlay.setVisibility(View.GONE);
+                })
+                .start();
+        } catch (Exception e) {
+            Log.e(TAG, "Error animating translation overlay", e);
+        }
     }
 
     private void showToast(String message) {
@@ -528,6 +638,11 @@ public class BubbleService extends Service {
     public void onDestroy() {
         super.onDestroy();
         Log.d(TAG, "onDestroy: Cleaning up resources");
+        // Les callbacks ML Kit encore en vol ne doivent plus rien démarrer
+        destroyed = true;
+        if (capturePipeline != null) {
+            capturePipeline.close();
+        }
         
         if (windowManager != null) {
             if (bubbleView != null) {
@@ -536,6 +651,11 @@ public class BubbleService extends Service {
             if (overlayView != null) {
                 windowManager.removeView(overlayView);
             }
+            if (translationOverlay != null) {
+                handler.removeCallbacks(hideTranslationsRunnable);
+                translationOverlay.animate().cancel();
+                windowManager.removeView(translationOverlay);
+            }
         }
         
         if (virtualDisplay != null) {
@@ -554,8 +674,22 @@ public class BubbleService extends Service {
             textRecognizer.close();
         }
         
-        if (translator != null) {
-            translator.close();
+        if (languageIdentifier != null) {
+            languageIdentifier.close();
+        }
+        
+        if (translatorPool != null) {
+            translatorPool.close();
+        }
+        
+        if (layoutCache != null) {
+            layoutCache.close();
+        }
+        
+        if (profileStore != null) {
+            handler.removeCallbacks(saveProfilesRunnable);
+            profileStore.saveAsync();
+            profileStore.close();
         }
     }
 
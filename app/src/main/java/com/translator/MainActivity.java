@@ -1,12 +1,16 @@
 package com.translator;
 
 import android.app.Activity;
+import android.app.AppOpsManager;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.media.projection.MediaProjectionManager;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Process;
 import android.provider.Settings;
 import android.util.Log;
 import android.view.View;
@@ -22,6 +26,9 @@ public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
     private static final int REQUEST_CODE_SCREEN_CAPTURE = 100;
     private static final int REQUEST_CODE_OVERLAY_PERMISSION = 101;
+    private static final int REQUEST_CODE_USAGE_ACCESS = 102;
+    private static final String PREFS_NAME = "translator_prefs";
+    private static final String KEY_USAGE_ACCESS_DECLINED = "usage_access_declined";
     private MediaProjectionManager projectionManager;
     private String selectedLanguage = "en";
 
@@ -35,8 +42,34 @@ public class MainActivity extends AppCompatActivity {
                     Uri.parse("package:" + getPackageName()));
             startActivityForResult(intent, REQUEST_CODE_OVERLAY_PERMISSION);
         } else {
+            requestUsageAccess();
+        }
+    }
+
+    // L'accès aux données d'utilisation permet d'identifier l'application traduite (profils par application)
+    private void requestUsageAccess() {
+        // Un refus est mémorisé : les réglages ne sont pas rouverts à chaque lancement
+        if (hasUsageAccess() || getAppPreferences().getBoolean(KEY_USAGE_ACCESS_DECLINED, false)) {
             showLanguageSelector();
+        } else {
+            Intent intent = new Intent(Settings.ACTION_USAGE_ACCESS_SETTINGS);
+            startActivityForResult(intent, REQUEST_CODE_USAGE_ACCESS);
+        }
+    }
+
+    private SharedPreferences getAppPreferences() {
+        return getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    private boolean hasUsageAccess() {
+        AppOpsManager appOps = (AppOpsManager) getSystemService(Context.APP_OPS_SERVICE);
+        int mode;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mode = appOps.unsafeCheckOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS, Process.myUid(), getPackageName());
+        } else {
+            mode = appOps.checkOpNoThrow(AppOpsManager.OPSTR_GET_USAGE_STATS, Process.myUid(), getPackageName());
         }
+        return mode == AppOpsManager.MODE_ALLOWED;
     }
 
     private void showLanguageSelector() {
@@ -101,11 +134,19 @@ public class MainActivity extends AppCompatActivity {
         
         if (requestCode == REQUEST_CODE_OVERLAY_PERMISSION) {
             if (Settings.canDrawOverlays(this)) {
-                showLanguageSelector();
+                requestUsageAccess();
             } else {
                 showError("Permission de superposition nécessaire");
                 finish();
             }
+        } else if (requestCode == REQUEST_CODE_USAGE_ACCESS) {
+            // Permission facultative : sans elle, la traduction fonctionne sans profils
+            boolean declined = !hasUsageAccess();
+            getAppPreferences().edit().putBoolean(KEY_USAGE_ACCESS_DECLINED, declined).apply();
+            if (declined) {
+                showError("Profils d'application désactivés sans accès aux données d'utilisation");
+            }
+            showLanguageSelector();
         } else if (requestCode == REQUEST_CODE_SCREEN_CAPTURE) {
             if (resultCode == Activity.RESULT_OK && data != null) {
                 startBubbleService(resultCode, data);
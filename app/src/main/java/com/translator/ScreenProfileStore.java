@@ -0,0 +1,169 @@
+package com.translator;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.translator.pipeline.BoundedLruMap;
+import com.translator.pipeline.ScreenProfile;
+import com.translator.pipeline.TextRegion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stockage compact et borné des {@link ScreenProfile}, persisté dans un fichier
+ * binaire compressé. Les profils les moins récemment utilisés sont évincés.
+ */
+public class ScreenProfileStore {
+    private static final String TAG = "ScreenProfileStore";
+    private static final String FILE_NAME = "screen_profiles.bin";
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAX_PROFILES = 12;
+
+    private final AtomicFile file;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final BoundedLruMap<String, ScreenProfile> profiles = new BoundedLruMap<>(MAX_PROFILES);
+
+    public ScreenProfileStore(Context context) {
+        file = new AtomicFile(new File(context.getFilesDir(), FILE_NAME));
+    }
+
+    public void load() {
+        ioExecutor.execute(() -> {
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(file.openRead()))) {
+                if (in.readInt() != FORMAT_VERSION) {
+                    Log.d(TAG, "load: Unknown format, ignoring stored profiles");
+                    return;
+                }
+                int count = in.readInt();
+                synchronized (this) {
+                    for (int i = 0; i < count; i++) {
+                        ScreenProfile profile = readProfile(in);
+                        // Un profil créé pendant le chargement est plus récent que celui du disque
+                        if (!profiles.containsKey(profile.getPackageName())) {
+                            profiles.put(profile.getPackageName(), profile);
+                        }
+                    }
+                }
+                Log.d(TAG, "load: Loaded " + count + " profiles");
+            } catch (FileNotFoundException e) {
+                Log.d(TAG, "load: No stored profiles");
+            } catch (IOException e) {
+                Log.e(TAG, "load: Error", e);
+            }
+        });
+    }
+
+    /**
+     * Retourne le profil de l'application, en le recréant si la langue cible a changé.
+     */
+    public synchronized ScreenProfile getProfile(String packageName, String targetLanguage) {
+        ScreenProfile profile = profiles.get(packageName);
+        if (profile == null || !profile.getTargetLanguage().equals(targetLanguage)) {
+            profile = new ScreenProfile(packageName, targetLanguage);
+            profiles.put(packageName, profile);
+        }
+        return profile;
+    }
+
+    public void saveAsync() {
+        if (ioExecutor.isShutdown()) {
+            Log.d(TAG, "saveAsync: Store closed, ignoring save");
+            return;
+        }
+        final byte[] data;
+        try {
+            data = serialize();
+        } catch (IOException e) {
+            Log.e(TAG, "saveAsync: Serialization error", e);
+            return;
+        }
+
+        ioExecutor.execute(() -> {
+            FileOutputStream out = null;
+            try {
+                out = file.startWrite();
+                out.write(data);
+                file.finishWrite(out);
+                Log.d(TAG, "saveAsync: Saved " + data.length + " bytes");
+            } catch (IOException e) {
+                Log.e(TAG, "saveAsync: Error", e);
+                if (out != null) {
+                    file.failWrite(out);
+                }
+            }
+        });
+    }
+
+    public void close() {
+        ioExecutor.shutdown();
+    }
+
+    private synchronized byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(profiles.size());
+            for (ScreenProfile profile : profiles.values()) {
+                writeProfile(out, profile);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeProfile(DataOutputStream out, ScreenProfile profile) throws IOException {
+        out.writeUTF(profile.getPackageName());
+        out.writeUTF(profile.getTargetLanguage());
+        out.writeUTF(profile.getSourceLanguage() != null ? profile.getSourceLanguage() : "");
+
+        out.writeByte(profile.getRegions().size());
+        for (TextRegion region : profile.getRegions()) {
+            out.writeShort(region.left);
+            out.writeShort(region.top);
+            out.writeShort(region.right);
+            out.writeShort(region.bottom);
+        }
+
+        out.writeShort(profile.getTranslations().size());
+        for (Map.Entry<String, String> entry : profile.getTranslations().entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    private static ScreenProfile readProfile(DataInputStream in) throws IOException {
+        String packageName = in.readUTF();
+        String targetLanguage = in.readUTF();
+        ScreenProfile profile = new ScreenProfile(packageName, targetLanguage);
+        profile.updateSourceLanguage(emptyToNull(in.readUTF()));
+
+        int regionCount = in.readUnsignedByte();
+        for (int i = 0; i < regionCount; i++) {
+            profile.restoreRegion(new TextRegion(in.readShort(), in.readShort(), in.readShort(), in.readShort()));
+        }
+
+        int translationCount = in.readUnsignedShort();
+        for (int i = 0; i < translationCount; i++) {
+            profile.restoreTranslation(in.readUTF(), in.readUTF());
+        }
+        return profile;
+    }
+
+    @Nullable
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
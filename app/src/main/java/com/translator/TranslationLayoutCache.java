@@ -0,0 +1,40 @@
+package com.translator;
+
+import android.graphics.Paint;
+import android.os.Handler;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.Log;
+
+import com.translator.pipeline.LayoutCache;
+import com.translator.pipeline.LayoutKey;
+
+/**
+ * Cache des mises en page de texte des traductions : les StaticLayout sont
+ * calculés sur un thread d'arrière-plan, le thread principal n'a plus qu'à les dessiner.
+ */
+public class TranslationLayoutCache extends LayoutCache<StaticLayout> {
+    private static final String TAG = "TranslationLayoutCache";
+
+    public TranslationLayoutCache(Handler mainHandler) {
+        super(DEFAULT_MAX_ENTRIES, mainHandler::post);
+    }
+
+    @Override
+    protected StaticLayout buildLayout(LayoutKey key) {
+        // Chaque mise en page garde son propre TextPaint, il n'est jamais partagé entre threads
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(key.textSize);
+        paint.setColor(key.textColor);
+
+        int desiredWidth = (int) Math.ceil(Layout.getDesiredWidth(key.text, paint));
+        int width = Math.max(1, Math.min(desiredWidth, key.maxWidth));
+        return StaticLayout.Builder.obtain(key.text, 0, key.text.length(), paint, width).build();
+    }
+
+    @Override
+    protected void onLayoutError(LayoutKey key, Exception e) {
+        Log.e(TAG, "prepare: Error building layout", e);
+    }
+}
@@ -0,0 +1,109 @@
+package com.translator;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.text.StaticLayout;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Vue unique couvrant l'écran qui dessine toutes les traductions à partir des mises
+ * en page de {@link TranslationLayoutCache}, sur un fond partagé : afficher un bloc
+ * ne crée ni vue ni fenêtre, il suffit de redessiner.
+ */
+public class TranslationOverlayView extends View {
+    private static final long ACCESSIBILITY_UPDATE_DELAY = 300;
+
+    private final Drawable labelBackground;
+    private final int paddingHorizontal;
+    private final int paddingVertical;
+    private final List<Label> labels = new ArrayList<>();
+    private final AccessibilityManager accessibilityManager;
+    private final Runnable notifyContentChanged =
+        () -> sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+
+    private static final class Label {
+        final StaticLayout layout;
+        final int x;
+        final int y;
+
+        Label(StaticLayout layout, int x, int y) {
+            this.layout = layout;
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    public TranslationOverlayView(Context context, Drawable labelBackground, int paddingHorizontal, int paddingVertical) {
+        super(context);
+        this.labelBackground = labelBackground;
+        this.paddingHorizontal = paddingHorizontal;
+        this.paddingVertical = paddingVertical;
+        this.accessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
+        setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_YES);
+    }
+
+    public void addLabel(StaticLayout layout, int x, int y) {
+        labels.add(new Label(layout, x, y));
+        scheduleAccessibilityUpdate();
+        invalidate();
+    }
+
+    public void clearLabels() {
+        labels.clear();
+        scheduleAccessibilityUpdate();
+        invalidate();
+    }
+
+    public boolean hasLabels() {
+        return !labels.isEmpty();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        for (Label label : labels) {
+            labelBackground.setBounds(
+                label.x,
+                label.y,
+                label.x + label.layout.getWidth() + 2 * paddingHorizontal,
+                label.y + label.layout.getHeight() + 2 * paddingVertical
+            );
+            labelBackground.draw(canvas);
+
+            canvas.save();
+            canvas.translate(label.x + paddingHorizontal, label.y + paddingVertical);
+            label.layout.draw(canvas);
+            canvas.restore();
+        }
+    }
+
+    // Les services d'accessibilité lisent les traductions comme avec les anciens TextView ;
+    // la description n'est construite que lorsqu'un service la demande
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        StringBuilder description = new StringBuilder();
+        for (Label label : labels) {
+            if (description.length() > 0) {
+                description.append('\n');
+            }
+            description.append(label.layout.getText());
+        }
+        info.setContentDescription(description.length() > 0 ? description : null);
+    }
+
+    // Une seule notification pour un lot de traductions arrivées à la suite
+    private void scheduleAccessibilityUpdate() {
+        if (accessibilityManager == null || !accessibilityManager.isEnabled()) {
+            return;
+        }
+        removeCallbacks(notifyContentChanged);
+        postDelayed(notifyContentChanged, ACCESSIBILITY_UPDATE_DELAY);
+    }
+}
@@ -0,0 +1,126 @@
+package com.translator;
+
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.mlkit.nl.translate.Translation;
+import com.google.mlkit.nl.translate.Translator;
+import com.google.mlkit.nl.translate.TranslatorOptions;
+import com.translator.pipeline.Callback;
+import com.translator.pipeline.TranslationEngine;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Un traducteur ML Kit par couple de langues. Un traducteur n'est fermé qu'une fois
+ * ses traductions terminées et un autre couple devenu courant, pour ne pas faire
+ * échouer un lot encore en cours.
+ */
+public class TranslatorPool implements TranslationEngine {
+    private static final String TAG = "TranslatorPool";
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private String currentKey;
+    private boolean closed = false;
+
+    private static final class Entry {
+        final String key;
+        final Translator translator;
+        Task<Void> ready;
+        int pending = 0;
+
+        Entry(String key, Translator translator) {
+            this.key = key;
+            this.translator = translator;
+        }
+    }
+
+    /**
+     * Réserve le traducteur du couple de langues ; le modèle est retéléchargé si
+     * la tentative précédente a échoué. Doit être appelé sur le thread principal.
+     */
+    @Override
+    public PooledLease acquire(String sourceLanguage, String targetLanguage) {
+        String key = sourceLanguage + ">" + targetLanguage;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            Log.d(TAG, "acquire: Creating translator from " + sourceLanguage + " to " + targetLanguage);
+            TranslatorOptions options = new TranslatorOptions.Builder()
+                .setSourceLanguage(sourceLanguage)
+                .setTargetLanguage(targetLanguage)
+                .build();
+            entry = new Entry(key, Translation.getClient(options));
+            entries.put(key, entry);
+        }
+        if (entry.ready == null || (entry.ready.isComplete() && !entry.ready.isSuccessful())) {
+            entry.ready = entry.translator.downloadModelIfNeeded();
+        }
+
+        currentKey = key;
+        entry.pending++;
+        closeIdleTranslators();
+        return new PooledLease(entry);
+    }
+
+    public void close() {
+        closed = true;
+        for (Entry entry : entries.values()) {
+            entry.translator.close();
+        }
+        entries.clear();
+    }
+
+    private void closeIdleTranslators() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.pending == 0 && !entry.key.equals(currentKey)) {
+                Log.d(TAG, "closeIdleTranslators: Closing translator " + entry.key);
+                entry.translator.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    public final class PooledLease implements TranslationEngine.Lease {
+        private final Entry entry;
+        private boolean released = false;
+
+        private PooledLease(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void whenReady(Callback<Void> callback) {
+            entry.ready
+                .addOnSuccessListener(callback::onSuccess)
+                .addOnFailureListener(callback::onFailure);
+        }
+
+        @Override
+        public void translate(String text, Callback<String> callback) {
+            entry.pending++;
+            entry.translator.translate(text)
+                .addOnSuccessListener(callback::onSuccess)
+                .addOnFailureListener(callback::onFailure)
+                .addOnCompleteListener(task -> TranslatorPool.this.release(entry));
+        }
+
+        @Override
+        public void release() {
+            if (!released) {
+                released = true;
+                TranslatorPool.this.release(entry);
+            }
+        }
+    }
+
+    private void release(Entry entry) {
+        entry.pending--;
+        if (!closed) {
+            closeIdleTranslators();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.translator.pipeline;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LinkedHashMap en ordre d'accès qui évince l'entrée la moins récemment utilisée
+ * au-delà de sa capacité. Non synchronisée.
+ */
+public class BoundedLruMap<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    private final int maxEntries;
+
+    public BoundedLruMap(int maxEntries) {
+        super(16, 0.75f, true);
+        this.maxEntries = maxEntries;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+    }
+}
@@ -0,0 +1,10 @@
+package com.translator.pipeline;
+
+/**
+ * Résultat asynchrone d'une étape du pipeline, toujours délivré sur le thread principal.
+ */
+public interface Callback<T> {
+    void onSuccess(T result);
+
+    void onFailure(Exception e);
+}
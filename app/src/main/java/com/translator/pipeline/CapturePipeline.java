@@ -0,0 +1,302 @@
+package com.translator.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logique de BubbleService indépendante d'Android : une capture à la fois, OCR
+ * guidé par le profil de l'application, identification de la langue, traduction
+ * et rendu. BubbleService la branche sur ML Kit, le banc de charge sur des
+ * substituts. Toutes les méthodes et tous les callbacks s'exécutent sur le thread
+ * principal.
+ */
+public class CapturePipeline<F> {
+    public static final long CAPTURE_DELAY_MS = 100;
+    private static final String FALLBACK_SOURCE_LANGUAGE = "en";
+
+    public interface Recognizer<F> {
+        /**
+         * Reconnaît le texte de la capture, limité à {@code bounds} si non null ; les
+         * régions des blocs retournés sont alors relatives à {@code bounds}.
+         */
+        void recognize(F frame, TextRegion bounds, Callback<List<RecognizedBlock>> callback);
+    }
+
+    public interface LanguageIdentifier {
+        /**
+         * Retourne le code de langue de traduction, ou null si la langue est inconnue
+         * ou non prise en charge.
+         */
+        void identify(String text, Callback<String> callback);
+    }
+
+    public interface Host<F> {
+        void onTextRecognized(int captureId, int blockCount);
+
+        void render(int captureId, String translatedText, TextRegion region);
+
+        void onProfileChanged(ScreenProfile profile);
+
+        void releaseFrame(F frame);
+
+        void showMessage(String message);
+
+        void logDebug(String message);
+
+        void logError(String message, Exception e);
+    }
+
+    private final Recognizer<F> recognizer;
+    private final LanguageIdentifier languageIdentifier;
+    private final TranslationEngine translationEngine;
+    private final Host<F> host;
+    private final ProcessingGate gate = new ProcessingGate();
+    private String targetLanguage;
+    private int captureCount = 0;
+    private boolean closed = false;
+
+    public CapturePipeline(Recognizer<F> recognizer, LanguageIdentifier languageIdentifier,
+                           TranslationEngine translationEngine, Host<F> host, String targetLanguage) {
+        this.recognizer = recognizer;
+        this.languageIdentifier = languageIdentifier;
+        this.translationEngine = translationEngine;
+        this.host = host;
+        this.targetLanguage = targetLanguage;
+    }
+
+    public void setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+    }
+
+    public ProcessingGate getGate() {
+        return gate;
+    }
+
+    /**
+     * Réserve le pipeline pour une nouvelle capture ; false si une capture est déjà en cours.
+     */
+    public boolean beginCapture(long now) {
+        if (closed) {
+            return false;
+        }
+        switch (gate.tryAcquire(now)) {
+            case BUSY:
+                host.logDebug("captureAndTranslate: Already processing image");
+                return false;
+            case ACQUIRED_AFTER_RESET:
+                host.logDebug("captureAndTranslate: Forcing reset of processing flag");
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Libère le pipeline quand la capture a échoué avant l'OCR.
+     */
+    public void abortCapture() {
+        gate.release();
+    }
+
+    /**
+     * Traite une capture réservée par {@link #beginCapture(long)} ; le profil peut être null.
+     * Retourne l'identifiant de la capture transmis à l'hôte.
+     */
+    public int process(F frame, int width, int height, ScreenProfile profile) {
+        int captureId = ++captureCount;
+        TextRegion scanBounds = profile != null ? profile.nextScanBounds(width, height) : null;
+        recognize(captureId, frame, profile, scanBounds);
+        return captureId;
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    private void recognize(int captureId, F frame, ScreenProfile profile, TextRegion scanBounds) {
+        // Limite l'OCR aux zones mémorisées pour cette application
+        host.logDebug("processImage: Starting text recognition" + (scanBounds != null ? " in " + scanBounds : ""));
+        recognizer.recognize(frame, scanBounds, new Callback<List<RecognizedBlock>>() {
+            @Override
+            public void onSuccess(List<RecognizedBlock> blocks) {
+                host.logDebug("processImage: Text recognition success");
+                if (closed) {
+                    host.releaseFrame(frame);
+                    return;
+                }
+
+                List<RecognizedBlock> screenBlocks = new ArrayList<>();
+                for (RecognizedBlock block : blocks) {
+                    if (block.text.isEmpty()) {
+                        continue;
+                    }
+                    TextRegion region = scanBounds != null
+                        ? block.region.offset(scanBounds.left, scanBounds.top)
+                        : block.region;
+                    host.logDebug("processImage: Found text block: " + block.text + " at position: " + region);
+                    screenBlocks.add(new RecognizedBlock(block.text, region));
+                }
+
+                if (screenBlocks.isEmpty() && scanBounds != null) {
+                    host.logDebug("processImage: No text in remembered regions, scanning full screen");
+                    recognize(captureId, frame, profile, null);
+                    return;
+                }
+
+                host.onTextRecognized(captureId, screenBlocks.size());
+                if (screenBlocks.isEmpty()) {
+                    host.logDebug("processImage: No text detected");
+                    host.showMessage("Aucun texte détecté");
+                } else {
+                    if (profile != null && scanBounds == null) {
+                        List<TextRegion> regions = new ArrayList<>();
+                        for (RecognizedBlock block : screenBlocks) {
+                            regions.add(block.region);
+                        }
+                        profile.updateRegions(regions);
+                    }
+                    translateTextBlocks(captureId, screenBlocks, profile);
+                }
+
+                gate.release();
+                host.releaseFrame(frame);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                host.logError("processImage: Text recognition failed", e);
+                if (!closed) {
+                    host.showMessage("Erreur de reconnaissance du texte");
+                }
+                gate.release();
+                host.releaseFrame(frame);
+            }
+        });
+    }
+
+    private void translateTextBlocks(int captureId, List<RecognizedBlock> blocks, ScreenProfile profile) {
+        // Les textes déjà traduits pour cette application s'affichent sans attendre le traducteur
+        List<RecognizedBlock> pendingBlocks = new ArrayList<>();
+        for (RecognizedBlock block : blocks) {
+            String cached = profile != null ? profile.getTranslation(block.text) : null;
+            if (cached != null) {
+                host.render(captureId, cached, block.region);
+            } else {
+                pendingBlocks.add(block);
+            }
+        }
+        host.logDebug("translateTextBlocks: " + (blocks.size() - pendingBlocks.size()) + " cached, "
+            + pendingBlocks.size() + " to translate");
+        if (pendingBlocks.isEmpty()) {
+            return;
+        }
+
+        // La langue de l'application est fiable d'un écran à l'autre : pas d'identification
+        String knownLanguage = profile != null ? profile.nextBatchSourceLanguage() : null;
+        if (knownLanguage != null) {
+            translateWithSourceLanguage(captureId, knownLanguage, pendingBlocks, profile);
+            return;
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (RecognizedBlock block : pendingBlocks) {
+            if (text.length() > 0) {
+                text.append('\n');
+            }
+            text.append(block.text);
+        }
+        languageIdentifier.identify(text.toString(), new Callback<String>() {
+            @Override
+            public void onSuccess(String sourceLanguage) {
+                if (closed) {
+                    return;
+                }
+                if (profile != null) {
+                    profile.updateSourceLanguage(sourceLanguage);
+                }
+                if (sourceLanguage == null) {
+                    host.logDebug("translateTextBlocks: Unsupported or unknown language");
+                    sourceLanguage = FALLBACK_SOURCE_LANGUAGE;
+                }
+                translateWithSourceLanguage(captureId, sourceLanguage, pendingBlocks, profile);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                host.logError("translateTextBlocks: Language identification failed", e);
+                if (closed) {
+                    return;
+                }
+                translateWithSourceLanguage(captureId, FALLBACK_SOURCE_LANGUAGE, pendingBlocks, profile);
+            }
+        });
+    }
+
+    private void translateWithSourceLanguage(int captureId, String sourceLanguage, List<RecognizedBlock> blocks, ScreenProfile profile) {
+        if (sourceLanguage.equals(targetLanguage)) {
+            host.logDebug("translateWithSourceLanguage: Text already in target language");
+            host.showMessage("Le texte est déjà dans la langue cible");
+            return;
+        }
+
+        // Le traducteur reste ouvert tant que ce lot l'utilise
+        TranslationEngine.Lease lease = translationEngine.acquire(sourceLanguage, targetLanguage);
+        lease.whenReady(new Callback<Void>() {
+            @Override
+            public void onSuccess(Void unused) {
+                if (closed) {
+                    lease.release();
+                    return;
+                }
+                AtomicBoolean errorShown = new AtomicBoolean(false);
+                for (RecognizedBlock block : blocks) {
+                    translateTextBlock(captureId, lease, block, profile, errorShown);
+                }
+                lease.release();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                host.logError("translateWithSourceLanguage: Failed to download model", e);
+                if (!closed) {
+                    host.showMessage("Erreur de téléchargement du modèle de traduction");
+                }
+                lease.release();
+            }
+        });
+    }
+
+    private void translateTextBlock(int captureId, TranslationEngine.Lease lease, RecognizedBlock block,
+                                    ScreenProfile profile, AtomicBoolean errorShown) {
+        host.logDebug("translateTextBlock: Starting translation for text: " + block.text);
+        lease.translate(block.text, new Callback<String>() {
+            @Override
+            public void onSuccess(String translatedText) {
+                host.logDebug("translateTextBlock: Translation success: " + translatedText);
+                if (closed) {
+                    return;
+                }
+                if (profile != null) {
+                    if (translatedText.equals(block.text) && block.text.indexOf(' ') >= 0) {
+                        // Une phrase revenue telle quelle : la langue mémorisée est sans doute fausse
+                        profile.forgetSourceLanguage();
+                    } else {
+                        profile.putTranslation(block.text, translatedText);
+                    }
+                    host.onProfileChanged(profile);
+                }
+                host.render(captureId, translatedText, block.region);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                host.logError("Translation failed", e);
+                // Un seul message par lot, même si tous les blocs échouent
+                if (!closed && errorShown.compareAndSet(false, true)) {
+                    host.showMessage("Erreur de traduction");
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.translator.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache borné de mises en page calculées sur un thread d'arrière-plan, afin que le
+ * thread principal n'ait plus qu'à les dessiner. Le calcul lui-même est fourni
+ * par la sous-classe.
+ */
+public abstract class LayoutCache<L> {
+    // Plusieurs écrans chargés (jusqu'à 200 blocs) doivent tenir dans le cache
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+
+    public interface Callback<L> {
+        void onLayoutReady(L layout);
+    }
+
+    private final Map<LayoutKey, L> cache;
+    // Callbacks en attente par clé en cours de calcul ; accès synchronisé sur la map
+    private final Map<LayoutKey, List<Callback<L>>> inFlight = new HashMap<>();
+    private final ExecutorService layoutExecutor = Executors.newSingleThreadExecutor();
+    private final Executor mainExecutor;
+    private final AtomicInteger pendingLayouts = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    /**
+     * @param mainExecutor exécute les callbacks sur le thread principal
+     */
+    protected LayoutCache(int maxEntries, Executor mainExecutor) {
+        this.cache = Collections.synchronizedMap(new BoundedLruMap<LayoutKey, L>(maxEntries));
+        this.mainExecutor = mainExecutor;
+    }
+
+    /**
+     * Mise en page déjà calculée pour cette clé, ou null.
+     */
+    public L get(LayoutKey key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Calcule la mise en page en arrière-plan puis appelle le callback sur le thread principal.
+     */
+    public void prepare(LayoutKey key, Callback<L> callback) {
+        if (closed) {
+            return;
+        }
+        L cached = cache.get(key);
+        if (cached != null) {
+            callback.onLayoutReady(cached);
+            return;
+        }
+
+        // Un texte répété (« Répondre ») ne calcule qu'une mise en page
+        synchronized (inFlight) {
+            List<Callback<L>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+        }
+
+        try {
+            pendingLayouts.incrementAndGet();
+            layoutExecutor.execute(() -> {
+                L layout = null;
+                try {
+                    layout = buildLayout(key);
+                    cache.put(key, layout);
+                } catch (Exception e) {
+                    onLayoutError(key, e);
+                } finally {
+                    List<Callback<L>> callbacks = takeCallbacks(key);
+                    if (layout != null) {
+                        deliver(layout, callbacks);
+                    }
+                    pendingLayouts.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Cache fermé entre-temps : la demande est simplement abandonnée
+            takeCallbacks(key);
+            pendingLayouts.decrementAndGet();
+        }
+    }
+
+    private List<Callback<L>> takeCallbacks(LayoutKey key) {
+        synchronized (inFlight) {
+            return inFlight.remove(key);
+        }
+    }
+
+    private void deliver(L layout, List<Callback<L>> callbacks) {
+        // Le service a pu être détruit pendant le calcul
+        mainExecutor.execute(() -> {
+            if (closed) {
+                return;
+            }
+            for (Callback<L> callback : callbacks) {
+                callback.onLayoutReady(layout);
+            }
+        });
+    }
+
+    public int getPendingCount() {
+        return pendingLayouts.get();
+    }
+
+    public void close() {
+        closed = true;
+        layoutExecutor.shutdownNow();
+        cache.clear();
+    }
+
+    /**
+     * Appelé sur le thread d'arrière-plan.
+     */
+    protected abstract L buildLayout(LayoutKey key);
+
+    protected void onLayoutError(LayoutKey key, Exception e) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.translator.pipeline;
+
+/**
+ * Clé d'une mise en page de traduction : texte, largeur maximale et style.
+ */
+public final class LayoutKey {
+    public final String text;
+    public final int maxWidth;
+    public final float textSize;
+    public final int textColor;
+
+    public LayoutKey(String text, int maxWidth, float textSize, int textColor) {
+        this.text = text;
+        this.maxWidth = maxWidth;
+        this.textSize = textSize;
+        this.textColor = textColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LayoutKey)) return false;
+        LayoutKey other = (LayoutKey) o;
+        return maxWidth == other.maxWidth
+            && Float.compare(textSize, other.textSize) == 0
+            && textColor == other.textColor
+            && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = text.hashCode();
+        result = 31 * result + maxWidth;
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + textColor;
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+package com.translator.pipeline;
+
+/**
+ * Une seule capture traitée à la fois : les appuis pendant un traitement sont
+ * ignorés, sauf si le traitement en cours semble bloqué depuis plus de 5 secondes.
+ */
+public final class ProcessingGate {
+    public static final long RESET_TIMEOUT_MS = 5000;
+
+    public enum Result {
+        ACQUIRED,
+        ACQUIRED_AFTER_RESET,
+        BUSY
+    }
+
+    private boolean processing = false;
+    private long processingSince = 0;
+    private int rejected = 0;
+    private int forcedResets = 0;
+
+    public Result tryAcquire(long now) {
+        Result result = Result.ACQUIRED;
+        if (processing) {
+            if (processingSince > 0 && now - processingSince > RESET_TIMEOUT_MS) {
+                forcedResets++;
+                result = Result.ACQUIRED_AFTER_RESET;
+            } else {
+                rejected++;
+                return Result.BUSY;
+            }
+        }
+        processing = true;
+        processingSince = now;
+        return result;
+    }
+
+    public void release() {
+        processing = false;
+        processingSince = 0;
+    }
+
+    public int getRejectedCount() {
+        return rejected;
+    }
+
+    public int getForcedResetCount() {
+        return forcedResets;
+    }
+}
@@ -0,0 +1,14 @@
+package com.translator.pipeline;
+
+/**
+ * Bloc de texte reconnu par l'OCR et sa position.
+ */
+public final class RecognizedBlock {
+    public final String text;
+    public final TextRegion region;
+
+    public RecognizedBlock(String text, TextRegion region) {
+        this.text = text;
+        this.region = region;
+    }
+}
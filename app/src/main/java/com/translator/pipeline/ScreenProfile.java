@@ -0,0 +1,193 @@
+package com.translator.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Profil d'écran d'une application au premier plan : langue source détectée,
+ * zones contenant du texte et traductions des textes statiques de l'interface.
+ * Confiné au thread principal.
+ */
+public class ScreenProfile {
+    public static final int MAX_REGIONS = 8;
+    // Les textes statiques de plusieurs écrans chargés (200 blocs dont 60 % statiques)
+    public static final int MAX_TRANSLATIONS = 512;
+    // Premières apparitions, au moins un écran complet pour qu'un texte y soit revu
+    private static final int MAX_CANDIDATES = 256;
+    public static final int MAX_TEXT_LENGTH = 120;
+    private static final int REGION_MARGIN = 24;
+    private static final int FULL_SCAN_INTERVAL = 5; // Une capture complète toutes les 5 captures
+    private static final float MAX_SCAN_AREA_RATIO = 0.8f;
+    private static final int LANGUAGE_CHECK_INTERVAL = 10; // Une identification de la langue tous les 10 lots
+
+    private final String packageName;
+    private final String targetLanguage;
+    private String sourceLanguage;
+    private final List<TextRegion> regions = new ArrayList<>();
+    private final BoundedLruMap<String, String> translations = new BoundedLruMap<>(MAX_TRANSLATIONS);
+    private final BoundedLruMap<String, String> candidates = new BoundedLruMap<>(MAX_CANDIDATES);
+    private int captureCount = 0;
+    private int batchesSinceLanguageCheck = 0;
+
+    public ScreenProfile(String packageName, String targetLanguage) {
+        this.packageName = packageName;
+        this.targetLanguage = targetLanguage;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    /**
+     * Langue source mémorisée, ou null si elle doit être identifiée.
+     */
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    /**
+     * Traduction mémorisée du texte, ou null. Un texte déjà vu lors d'une capture
+     * précédente est alors gardé parmi les traductions.
+     */
+    public String getTranslation(String text) {
+        String translation = translations.get(text);
+        if (translation == null) {
+            translation = candidates.remove(text);
+            if (translation != null) {
+                translations.put(text, translation);
+            }
+        }
+        return translation;
+    }
+
+    public void putTranslation(String text, String translation) {
+        // Seuls les textes courts (boutons, menus, titres) valent la peine d'être gardés
+        if (text.length() > MAX_TEXT_LENGTH || translation.length() > MAX_TEXT_LENGTH * 2) {
+            return;
+        }
+        // Un texte vu une seule fois (message, horodatage) ne doit pas évincer les textes statiques
+        if (translations.containsKey(text)) {
+            translations.put(text, translation);
+        } else {
+            candidates.put(text, translation);
+        }
+    }
+
+    /**
+     * Recharge une traduction enregistrée, sans passer par les candidats.
+     */
+    public void restoreTranslation(String text, String translation) {
+        translations.put(text, translation);
+    }
+
+    /**
+     * Traductions de la moins à la plus récemment utilisée.
+     */
+    public Map<String, String> getTranslations() {
+        return Collections.unmodifiableMap(translations);
+    }
+
+    /**
+     * Langue source à utiliser pour le prochain lot à traduire, ou null si elle doit
+     * être identifiée : elle est inconnue, ou la dernière identification remonte à
+     * plus de 10 lots.
+     */
+    public String nextBatchSourceLanguage() {
+        if (sourceLanguage == null || ++batchesSinceLanguageCheck > LANGUAGE_CHECK_INTERVAL) {
+            return null;
+        }
+        return sourceLanguage;
+    }
+
+    /**
+     * Mémorise la langue identifiée, sauf si elle est inconnue (null) ou égale à la
+     * langue cible : la capture suivante refera alors l'identification.
+     */
+    public void updateSourceLanguage(String language) {
+        sourceLanguage = language != null && !language.equals(targetLanguage) ? language : null;
+        batchesSinceLanguageCheck = 0;
+    }
+
+    /**
+     * Oublie la langue mémorisée, une traduction étant revenue inchangée.
+     */
+    public void forgetSourceLanguage() {
+        sourceLanguage = null;
+    }
+
+    public List<TextRegion> getRegions() {
+        return Collections.unmodifiableList(regions);
+    }
+
+    /**
+     * Recharge une zone enregistrée, sans fusion.
+     */
+    public void restoreRegion(TextRegion region) {
+        if (regions.size() < MAX_REGIONS) {
+            regions.add(region);
+        }
+    }
+
+    public void updateRegions(List<TextRegion> blockRegions) {
+        regions.clear();
+        for (TextRegion blockRegion : blockRegions) {
+            addRegion(blockRegion.outset(REGION_MARGIN));
+        }
+    }
+
+    private void addRegion(TextRegion region) {
+        for (int i = 0; i < regions.size(); i++) {
+            if (regions.get(i).intersects(region)) {
+                regions.set(i, regions.get(i).union(region));
+                return;
+            }
+        }
+        if (regions.size() < MAX_REGIONS) {
+            regions.add(region);
+            return;
+        }
+
+        // Trop de zones : fusion avec celle dont l'union grossit le moins
+        int best = 0;
+        long bestGrowth = Long.MAX_VALUE;
+        for (int i = 0; i < regions.size(); i++) {
+            TextRegion existing = regions.get(i);
+            long growth = existing.union(region).area() - existing.area();
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                best = i;
+            }
+        }
+        regions.set(best, regions.get(best).union(region));
+    }
+
+    /**
+     * Retourne la zone à soumettre à l'OCR pour la prochaine capture, ou null
+     * si l'écran complet doit être analysé.
+     */
+    public TextRegion nextScanBounds(int width, int height) {
+        captureCount++;
+        if (regions.isEmpty() || captureCount % FULL_SCAN_INTERVAL == 0) {
+            return null;
+        }
+
+        TextRegion bounds = regions.get(0);
+        for (TextRegion region : regions) {
+            bounds = bounds.union(region);
+        }
+        bounds = bounds.clip(width, height);
+        if (bounds == null) {
+            return null;
+        }
+        if (bounds.area() > (long) (width * (long) height * MAX_SCAN_AREA_RATIO)) {
+            return null;
+        }
+        return bounds;
+    }
+}
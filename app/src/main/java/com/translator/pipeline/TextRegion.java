@@ -0,0 +1,70 @@
+package com.translator.pipeline;
+
+/**
+ * Rectangle immuable en pixels d'écran, sans dépendance à android.graphics.Rect
+ * pour que le pipeline tourne aussi sur une JVM standard.
+ */
+public final class TextRegion {
+    public final int left;
+    public final int top;
+    public final int right;
+    public final int bottom;
+
+    public TextRegion(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public long area() {
+        return (long) width() * height();
+    }
+
+    public boolean intersects(TextRegion other) {
+        return left < other.right && other.left < right && top < other.bottom && other.top < bottom;
+    }
+
+    public TextRegion union(TextRegion other) {
+        return new TextRegion(
+            Math.min(left, other.left),
+            Math.min(top, other.top),
+            Math.max(right, other.right),
+            Math.max(bottom, other.bottom)
+        );
+    }
+
+    public TextRegion outset(int margin) {
+        return new TextRegion(left - margin, top - margin, right + margin, bottom + margin);
+    }
+
+    public TextRegion offset(int dx, int dy) {
+        return new TextRegion(left + dx, top + dy, right + dx, bottom + dy);
+    }
+
+    /**
+     * Retourne la partie de la région comprise dans l'écran, ou null si elle en sort entièrement.
+     */
+    public TextRegion clip(int width, int height) {
+        TextRegion clipped = new TextRegion(
+            Math.max(left, 0),
+            Math.max(top, 0),
+            Math.min(right, width),
+            Math.min(bottom, height)
+        );
+        return clipped.width() > 0 && clipped.height() > 0 ? clipped : null;
+    }
+
+    @Override
+    public String toString() {
+        return "TextRegion(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package com.translator.pipeline;
+
+/**
+ * Fournit les traducteurs par couple de langues.
+ */
+public interface TranslationEngine {
+    /**
+     * Réserve le traducteur du couple ; il reste ouvert jusqu'à {@link Lease#release()}
+     * et la fin des traductions demandées.
+     */
+    Lease acquire(String sourceLanguage, String targetLanguage);
+
+    interface Lease {
+        /**
+         * Attend que le modèle soit disponible ; un échec précédent est retenté.
+         */
+        void whenReady(Callback<Void> callback);
+
+        void translate(String text, Callback<String> callback);
+
+        void release();
+    }
+}
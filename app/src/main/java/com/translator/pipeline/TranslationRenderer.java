@@ -0,0 +1,40 @@
+package com.translator.pipeline;
+
+/**
+ * Affiche une traduction : la mise en page est prise dans le cache ou calculée en
+ * arrière-plan, puis confiée au dessinateur sur le thread principal.
+ */
+public class TranslationRenderer<L> {
+    public interface Drawer<L> {
+        void draw(int captureId, L layout, TextRegion region);
+    }
+
+    private final LayoutCache<L> layoutCache;
+    private final Drawer<L> drawer;
+    private final int horizontalPadding;
+    private final float textSize;
+    private final int textColor;
+
+    public TranslationRenderer(LayoutCache<L> layoutCache, Drawer<L> drawer,
+                               int horizontalPadding, float textSize, int textColor) {
+        this.layoutCache = layoutCache;
+        this.drawer = drawer;
+        this.horizontalPadding = horizontalPadding;
+        this.textSize = textSize;
+        this.textColor = textColor;
+    }
+
+    /**
+     * L'identifiant de capture est rendu au dessinateur, qui ignore les captures dépassées.
+     */
+    public void show(int captureId, String translatedText, TextRegion region, int screenWidth) {
+        int maxWidth = Math.max(screenWidth / 4, screenWidth - Math.max(region.left, 0) - 2 * horizontalPadding);
+        LayoutKey key = new LayoutKey(translatedText, maxWidth, textSize, textColor);
+        L layout = layoutCache.get(key);
+        if (layout != null) {
+            drawer.draw(captureId, layout, region);
+            return;
+        }
+        layoutCache.prepare(key, readyLayout -> drawer.draw(captureId, readyLayout, region));
+    }
+}
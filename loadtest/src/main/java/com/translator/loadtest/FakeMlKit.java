@@ -0,0 +1,133 @@
+package com.translator.loadtest;
+
+import com.translator.pipeline.Callback;
+import com.translator.pipeline.CapturePipeline;
+import com.translator.pipeline.RecognizedBlock;
+import com.translator.pipeline.TextRegion;
+import com.translator.pipeline.TranslationEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Substituts de TextRecognizer, LanguageIdentifier et Translator d'ML Kit : chacun
+ * tourne sur son propre exécuteur, simule une latence configurable et rend son
+ * résultat sur le thread principal, comme les Task d'ML Kit.
+ */
+final class FakeMlKit implements CapturePipeline.Recognizer<SyntheticFrameSource.Frame>,
+        CapturePipeline.LanguageIdentifier, TranslationEngine {
+    private static final String SOURCE_LANGUAGE = "fr";
+
+    private final LoadTestConfig config;
+    private final Random random;
+    private final Executor mainThread;
+    final ThreadPoolExecutor recognizerExecutor = newExecutor(1);
+    final ThreadPoolExecutor languageIdExecutor = newExecutor(1);
+    final ThreadPoolExecutor translatorExecutor;
+
+    final AtomicInteger croppedScans = new AtomicInteger();
+    final AtomicInteger identifyRequests = new AtomicInteger();
+    final AtomicInteger translateRequests = new AtomicInteger();
+
+    FakeMlKit(LoadTestConfig config, Random random, Executor mainThread) {
+        this.config = config;
+        this.random = random;
+        this.mainThread = mainThread;
+        this.translatorExecutor = newExecutor(Math.max(1, config.translatorThreads));
+    }
+
+    @Override
+    public void recognize(SyntheticFrameSource.Frame frame, TextRegion bounds, Callback<List<RecognizedBlock>> callback) {
+        if (bounds != null) {
+            croppedScans.incrementAndGet();
+        }
+        recognizerExecutor.execute(() -> {
+            // Comme ML Kit sur une image recadrée : positions relatives à la zone analysée
+            List<RecognizedBlock> blocks = new ArrayList<>();
+            for (RecognizedBlock block : frame.blocks) {
+                if (bounds == null) {
+                    blocks.add(block);
+                } else if (bounds.intersects(block.region)) {
+                    blocks.add(new RecognizedBlock(block.text, block.region.offset(-bounds.left, -bounds.top)));
+                }
+            }
+            double areaRatio = bounds != null ? (double) bounds.area() / ((long) frame.width * frame.height) : 1.0;
+            simulateWork(config.ocrBaseMs * areaRatio + config.ocrPerBlockMs * blocks.size());
+            mainThread.execute(() -> callback.onSuccess(blocks));
+        });
+    }
+
+    @Override
+    public void identify(String text, Callback<String> callback) {
+        identifyRequests.incrementAndGet();
+        languageIdExecutor.execute(() -> {
+            simulateWork(config.languageIdMs);
+            mainThread.execute(() -> callback.onSuccess(SOURCE_LANGUAGE));
+        });
+    }
+
+    @Override
+    public Lease acquire(String sourceLanguage, String targetLanguage) {
+        // Modèles supposés déjà téléchargés
+        return new Lease() {
+            @Override
+            public void whenReady(Callback<Void> callback) {
+                mainThread.execute(() -> callback.onSuccess(null));
+            }
+
+            @Override
+            public void translate(String text, Callback<String> callback) {
+                translateRequests.incrementAndGet();
+                translatorExecutor.execute(() -> {
+                    simulateWork(config.translateMs);
+                    mainThread.execute(() -> callback.onSuccess("[" + targetLanguage + "] " + text));
+                });
+            }
+
+            @Override
+            public void release() {
+            }
+        };
+    }
+
+    void shutdown() {
+        recognizerExecutor.shutdownNow();
+        languageIdExecutor.shutdownNow();
+        translatorExecutor.shutdownNow();
+    }
+
+    private void simulateWork(double millis) {
+        double jittered;
+        synchronized (random) {
+            jittered = millis * (1.0 + config.jitter * (random.nextDouble() * 2 - 1));
+        }
+        sleep((long) Math.max(0, jittered));
+    }
+
+    static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static ThreadPoolExecutor newExecutor(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+    }
+
+    static boolean isIdle(ExecutorService executor) {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        return pool.getQueue().isEmpty() && pool.getActiveCount() == 0;
+    }
+}
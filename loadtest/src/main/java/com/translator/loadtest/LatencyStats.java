@@ -0,0 +1,41 @@
+package com.translator.loadtest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collecte des latences en millisecondes et calcul des percentiles.
+ */
+final class LatencyStats {
+    private final List<Long> samples = new ArrayList<>();
+
+    synchronized void record(long millis) {
+        samples.add(millis);
+    }
+
+    synchronized int count() {
+        return samples.size();
+    }
+
+    synchronized String summary() {
+        if (samples.isEmpty()) {
+            return "n=0";
+        }
+        List<Long> sorted = new ArrayList<>(samples);
+        Collections.sort(sorted);
+        long total = 0;
+        for (long sample : sorted) {
+            total += sample;
+        }
+        return String.format("n=%d mean=%.1fms p50=%dms p95=%dms p99=%dms max=%dms",
+            sorted.size(), (double) total / sorted.size(),
+            percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+            sorted.get(sorted.size() - 1));
+    }
+
+    private static long percentile(List<Long> sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,98 @@
+package com.translator.loadtest;
+
+/**
+ * Paramètres du banc de charge, lus depuis les propriétés système {@code loadtest.*}.
+ */
+final class LoadTestConfig {
+    static final String MODE_SUSTAINED = "sustained";
+    static final String MODE_BURST = "burst";
+
+    final String mode;
+    final double fps;
+    final int durationSec;
+    final int burstTaps;
+    final int burstIntervalMs;
+    final int frameWidth;
+    final int frameHeight;
+    final int blocksPerFrame;
+    final double staticTextRatio;
+    final int ocrBaseMs;
+    final int ocrPerBlockMs;
+    final double textAreaRatio;
+    final int languageIdMs;
+    final int translateMs;
+    final int translatorThreads;
+    final int layoutPerBlockMs;
+    final int renderPerBlockMs;
+    final double jitter;
+    final boolean profiles;
+    final int drainTimeoutSec;
+    final long seed;
+
+    private LoadTestConfig() {
+        mode = string("mode", MODE_SUSTAINED);
+        fps = number("fps", 10);
+        durationSec = integer("durationSec", 20);
+        burstTaps = integer("burstTaps", 50);
+        burstIntervalMs = integer("burstIntervalMs", 50);
+        frameWidth = integer("frameWidth", 1080);
+        frameHeight = integer("frameHeight", 2400);
+        blocksPerFrame = integer("blocks", 200);
+        staticTextRatio = number("staticTextRatio", 0.6);
+        textAreaRatio = number("textAreaRatio", 0.5);
+        ocrBaseMs = integer("ocrBaseMs", 120);
+        ocrPerBlockMs = integer("ocrPerBlockMs", 1);
+        languageIdMs = integer("languageIdMs", 15);
+        translateMs = integer("translateMs", 25);
+        translatorThreads = integer("translatorThreads", 1);
+        layoutPerBlockMs = integer("layoutPerBlockMs", 1);
+        renderPerBlockMs = integer("renderPerBlockMs", 0);
+        jitter = number("jitter", 0.2);
+        profiles = Boolean.parseBoolean(string("profiles", "true"));
+        drainTimeoutSec = integer("drainTimeoutSec", 60);
+        seed = Long.parseLong(string("seed", "42"));
+
+        if (!MODE_SUSTAINED.equals(mode) && !MODE_BURST.equals(mode)) {
+            throw new IllegalArgumentException("Unknown loadtest.mode: " + mode);
+        }
+    }
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig();
+    }
+
+    private static String string(String key, String defaultValue) {
+        return System.getProperty("loadtest." + key, defaultValue);
+    }
+
+    private static int integer(String key, int defaultValue) {
+        return Integer.parseInt(string(key, Integer.toString(defaultValue)));
+    }
+
+    private static double number(String key, double defaultValue) {
+        return Double.parseDouble(string(key, Double.toString(defaultValue)));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (MODE_BURST.equals(mode)) {
+            sb.append("mode=burst taps=").append(burstTaps).append(" interval=").append(burstIntervalMs).append("ms");
+        } else {
+            sb.append("mode=sustained fps=").append(fps).append(" duration=").append(durationSec).append("s");
+        }
+        sb.append(" frame=").append(frameWidth).append('x').append(frameHeight)
+            .append(" blocks=").append(blocksPerFrame)
+            .append(" static=").append(staticTextRatio)
+            .append(" textArea=").append(textAreaRatio)
+            .append(" ocr=").append(ocrBaseMs).append("ms+").append(ocrPerBlockMs).append("ms/block")
+            .append(" langId=").append(languageIdMs).append("ms")
+            .append(" translate=").append(translateMs).append("ms x").append(translatorThreads)
+            .append(" layout=").append(layoutPerBlockMs).append("ms/block")
+            .append(" render=").append(renderPerBlockMs).append("ms/block")
+            .append(" jitter=").append(jitter)
+            .append(" profiles=").append(profiles)
+            .append(" seed=").append(seed);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.translator.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Banc de charge sans interface du pipeline de BubbleService.
+ *
+ * <p>Lancement : {@code ./gradlew -p loadtest loadTest}, paramétrable avec
+ * {@code -Ploadtest.<clé>=<valeur>} (voir {@link LoadTestConfig}), par exemple
+ * {@code -Ploadtest.mode=burst -Ploadtest.burstTaps=30 -Ploadtest.blocks=200}.
+ */
+public final class LoadTestMain {
+    private static final long SAMPLE_INTERVAL_MS = 10;
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Load test: " + config);
+
+        Random random = new Random(config.seed);
+        SyntheticFrameSource frameSource = new SyntheticFrameSource(config, random);
+        MainLooper mainThread = new MainLooper();
+        FakeMlKit mlKit = new FakeMlKit(config, random, mainThread);
+        PipelineStandIn pipeline = new PipelineStandIn(config, frameSource, mlKit, mainThread);
+
+        List<QueueGauge> gauges = new ArrayList<>();
+        gauges.add(new QueueGauge("main", mainThread::readyCount));
+        gauges.add(new QueueGauge("ocr", () -> mlKit.recognizerExecutor.getQueue().size()));
+        gauges.add(new QueueGauge("languageId", () -> mlKit.languageIdExecutor.getQueue().size()));
+        gauges.add(new QueueGauge("translate", () -> mlKit.translatorExecutor.getQueue().size()));
+        gauges.add(new QueueGauge("layout", pipeline.layoutCache::getPendingCount));
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            for (QueueGauge gauge : gauges) {
+                gauge.sample();
+            }
+        }, 0, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        pipeline.startMainThreadProbe();
+        long start = System.currentTimeMillis();
+        runStimulus(config, pipeline);
+        long stimulusEnd = System.currentTimeMillis();
+
+        long drainDeadline = stimulusEnd + TimeUnit.SECONDS.toMillis(config.drainTimeoutSec);
+        while (!pipeline.isDrained() && System.currentTimeMillis() < drainDeadline) {
+            Thread.sleep(SAMPLE_INTERVAL_MS);
+        }
+        boolean drained = pipeline.isDrained();
+        pipeline.stopMainThreadProbe();
+        sampler.shutdownNow();
+
+        long end = drained ? Math.max(stimulusEnd, pipeline.lastRenderTime()) : System.currentTimeMillis();
+        printReport(config, pipeline, mlKit, gauges, start, stimulusEnd, end, drained);
+
+        mlKit.shutdown();
+        pipeline.shutdown();
+    }
+
+    private static void runStimulus(LoadTestConfig config, PipelineStandIn pipeline) throws InterruptedException {
+        if (LoadTestConfig.MODE_BURST.equals(config.mode)) {
+            for (int i = 0; i < config.burstTaps; i++) {
+                pipeline.tap();
+                Thread.sleep(config.burstIntervalMs);
+            }
+            return;
+        }
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.fps);
+        long startNanos = System.nanoTime();
+        long endNanos = startNanos + TimeUnit.SECONDS.toNanos(config.durationSec);
+        long next = startNanos;
+        while (next < endNanos) {
+            pipeline.tap();
+            next += periodNanos;
+            long waitNanos = next - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    private static void printReport(LoadTestConfig config, PipelineStandIn pipeline, FakeMlKit mlKit,
+                                    List<QueueGauge> gauges, long start, long stimulusEnd, long end, boolean drained) {
+        double stimulusSec = (stimulusEnd - start) / 1000.0;
+        double totalSec = Math.max(1, end - start) / 1000.0;
+        int taps = pipeline.taps.get();
+        int dropped = pipeline.droppedFrames();
+
+        System.out.println();
+        System.out.println("=== Load test report ===");
+        System.out.printf("Duration: stimulus %.1fs, total %.1fs%s%n", stimulusSec, totalSec,
+            drained ? "" : " (NOT DRAINED after " + config.drainTimeoutSec + "s)");
+        System.out.printf("Frames: offered=%d processed=%d completed=%d incomplete=%d dropped=%d (%.1f%%) forcedResets=%d croppedScans=%d%n",
+            taps, pipeline.processedFrames.get(), pipeline.completedFrames.get(), pipeline.incompleteFrames(), dropped,
+            taps > 0 ? 100.0 * dropped / taps : 0.0, pipeline.forcedResets(), mlKit.croppedScans.get());
+        System.out.printf("Throughput: %.2f frames/s completed, %.1f blocks/s rendered, %d stale blocks dropped%n",
+            pipeline.completedFrames.get() / totalSec, pipeline.renderedBlocks.get() / totalSec,
+            pipeline.staleBlocks.get());
+        int recognized = pipeline.recognizedBlocks.get();
+        int translationHits = recognized - mlKit.translateRequests.get();
+        int layoutHits = pipeline.layoutCache.hits.get();
+        int rendered = pipeline.renderedBlocks.get();
+        System.out.printf("Caches: translation hits=%d (%.1f%%), layout hits=%d (%.1f%%), language checks=%d%n",
+            translationHits, recognized > 0 ? 100.0 * translationHits / recognized : 0.0,
+            layoutHits, rendered > 0 ? 100.0 * layoutHits / rendered : 0.0, mlKit.identifyRequests.get());
+        System.out.println("Frame latency (tap -> last block rendered): " + pipeline.frameLatency.summary());
+        System.out.println("Block latency (tap -> block rendered):      " + pipeline.blockLatency.summary());
+        System.out.println("OCR latency (queued -> result on main):     " + pipeline.ocrLatency.summary());
+        System.out.println("Main thread lag (16ms drag probe):         " + pipeline.mainThreadLag.summary());
+        System.out.printf("Late main-thread frames: %d / %d%n", pipeline.lateMainFrames.get(), pipeline.mainFrames.get());
+        for (Map.Entry<String, Integer> message : pipeline.messages().entrySet()) {
+            System.out.printf("Message \"%s\": %d%n", message.getKey(), message.getValue());
+        }
+        System.out.println("Queue depths:");
+        for (QueueGauge gauge : gauges) {
+            System.out.println("  " + gauge);
+        }
+    }
+
+    private static final class QueueGauge {
+        private final String name;
+        private final IntSupplier depth;
+        private int max = 0;
+        private long total = 0;
+        private long samples = 0;
+
+        QueueGauge(String name, IntSupplier depth) {
+            this.name = name;
+            this.depth = depth;
+        }
+
+        void sample() {
+            int value = depth.getAsInt();
+            max = Math.max(max, value);
+            total += value;
+            samples++;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s max=%d mean=%.1f", name, max, samples > 0 ? (double) total / samples : 0.0);
+        }
+    }
+}
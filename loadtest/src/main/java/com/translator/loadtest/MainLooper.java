@@ -0,0 +1,44 @@
+package com.translator.loadtest;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Équivalent JVM du Looper principal : un seul thread exécute les tâches prêtes,
+ * les tâches différées (postDelayed) attendent leur échéance sur un minuteur à part.
+ * Comme dans la MessageQueue d'Android, seules les tâches prêtes encombrent la file.
+ */
+final class MainLooper implements Executor {
+    private final ThreadPoolExecutor thread = FakeMlKit.newExecutor(1);
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @Override
+    public void execute(Runnable task) {
+        thread.execute(task);
+    }
+
+    void postDelayed(Runnable task, long delayMillis) {
+        timer.schedule(() -> execute(task), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    <T> Future<T> submit(Callable<T> task) {
+        return thread.submit(task);
+    }
+
+    /**
+     * Nombre de tâches prêtes en attente du thread principal.
+     */
+    int readyCount() {
+        return thread.getQueue().size();
+    }
+
+    void shutdown() {
+        timer.shutdownNow();
+        thread.shutdownNow();
+    }
+}
@@ -0,0 +1,298 @@
+package com.translator.loadtest;
+
+import com.translator.pipeline.CapturePipeline;
+import com.translator.pipeline.LayoutCache;
+import com.translator.pipeline.LayoutKey;
+import com.translator.pipeline.ScreenProfile;
+import com.translator.pipeline.TextRegion;
+import com.translator.pipeline.TranslationRenderer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hôte JVM du pipeline de BubbleService : il exécute le même {@link CapturePipeline},
+ * le même {@link ScreenProfile} et le même {@link TranslationRenderer} que le service,
+ * branchés sur les substituts d'ML Kit. {@link MainLooper} tient le rôle du
+ * Looper principal ; seuls l'acquisition de l'image et le dessin sont simulés.
+ */
+final class PipelineStandIn {
+    private static final String PACKAGE_NAME = "com.example.chat";
+    private static final String TARGET_LANGUAGE = "en";
+    // Valeurs de BubbleService sur un écran xxhdpi
+    private static final int TRANSLATION_PADDING_H = 24;
+    private static final float TRANSLATION_TEXT_SIZE = 48f;
+    private static final int TRANSLATION_TEXT_COLOR = 0xFFFFFFFF;
+    private static final long FRAME_BUDGET_MS = 16;
+
+    private final LoadTestConfig config;
+    private final SyntheticFrameSource frameSource;
+    private final FakeMlKit mlKit;
+    final MainLooper mainThread;
+    final StandInLayoutCache layoutCache;
+    private final CapturePipeline<SyntheticFrameSource.Frame> capturePipeline;
+    private final ScreenProfile profile;
+    private final TranslationRenderer<String> translationRenderer;
+
+    // État confiné au thread principal, comme dans BubbleService
+    private final Map<Integer, FrameTrace> traces = new HashMap<>();
+    private int displayedCaptureId = 0;
+    private final Map<String, Integer> messages = Collections.synchronizedMap(new TreeMap<>());
+
+    final AtomicInteger taps = new AtomicInteger();
+    final AtomicInteger processedFrames = new AtomicInteger();
+    final AtomicInteger completedFrames = new AtomicInteger();
+    final AtomicInteger recognizedBlocks = new AtomicInteger();
+    final AtomicInteger renderedBlocks = new AtomicInteger();
+    final AtomicInteger staleBlocks = new AtomicInteger();
+    final AtomicInteger lateMainFrames = new AtomicInteger();
+    final AtomicInteger mainFrames = new AtomicInteger();
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private final AtomicLong lastRenderTime = new AtomicLong();
+
+    final LatencyStats frameLatency = new LatencyStats();
+    final LatencyStats blockLatency = new LatencyStats();
+    final LatencyStats ocrLatency = new LatencyStats();
+    final LatencyStats mainThreadLag = new LatencyStats();
+
+    private volatile boolean probing = false;
+
+    PipelineStandIn(LoadTestConfig config, SyntheticFrameSource frameSource, FakeMlKit mlKit,
+                    MainLooper mainThread) {
+        this.config = config;
+        this.frameSource = frameSource;
+        this.mlKit = mlKit;
+        this.mainThread = mainThread;
+        this.layoutCache = new StandInLayoutCache(mainThread, config.layoutPerBlockMs);
+        this.profile = config.profiles ? new ScreenProfile(PACKAGE_NAME, TARGET_LANGUAGE) : null;
+        this.translationRenderer = new TranslationRenderer<>(layoutCache, this::drawTranslation,
+            TRANSLATION_PADDING_H, TRANSLATION_TEXT_SIZE, TRANSLATION_TEXT_COLOR);
+        this.capturePipeline = new CapturePipeline<>(mlKit, mlKit, mlKit, new StandInHost(), TARGET_LANGUAGE);
+    }
+
+    /**
+     * Équivalent d'un ACTION_UP sur la bulle.
+     */
+    void tap() {
+        long tapTime = System.currentTimeMillis();
+        taps.incrementAndGet();
+        mainThread.execute(() -> captureAndTranslate(tapTime));
+    }
+
+    /**
+     * Mesure la réactivité du thread principal comme le ferait le gestionnaire de
+     * déplacement de la bulle : une tâche toutes les 16 ms, dont on relève le retard.
+     */
+    void startMainThreadProbe() {
+        probing = true;
+        scheduleProbe(System.currentTimeMillis() + FRAME_BUDGET_MS);
+    }
+
+    void stopMainThreadProbe() {
+        probing = false;
+    }
+
+    boolean isDrained() {
+        return pendingFrames.get() == 0
+            && layoutCache.getPendingCount() == 0
+            && FakeMlKit.isIdle(mlKit.recognizerExecutor)
+            && FakeMlKit.isIdle(mlKit.languageIdExecutor)
+            && FakeMlKit.isIdle(mlKit.translatorExecutor);
+    }
+
+    int incompleteFrames() {
+        return pendingFrames.get();
+    }
+
+    long lastRenderTime() {
+        return lastRenderTime.get();
+    }
+
+    int droppedFrames() {
+        return onMainThread(() -> capturePipeline.getGate().getRejectedCount());
+    }
+
+    int forcedResets() {
+        return onMainThread(() -> capturePipeline.getGate().getForcedResetCount());
+    }
+
+    Map<String, Integer> messages() {
+        synchronized (messages) {
+            return new TreeMap<>(messages);
+        }
+    }
+
+    void shutdown() {
+        onMainThread(() -> {
+            capturePipeline.close();
+            return null;
+        });
+        layoutCache.close();
+        mainThread.shutdown();
+    }
+
+    private <T> T onMainThread(Callable<T> task) {
+        try {
+            return mainThread.submit(task).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void scheduleProbe(long expectedTime) {
+        if (!probing) {
+            return;
+        }
+        mainThread.postDelayed(() -> {
+            long lag = Math.max(0, System.currentTimeMillis() - expectedTime);
+            mainThreadLag.record(lag);
+            mainFrames.incrementAndGet();
+            if (lag > FRAME_BUDGET_MS) {
+                lateMainFrames.incrementAndGet();
+            }
+            scheduleProbe(System.currentTimeMillis() + FRAME_BUDGET_MS);
+        }, Math.max(0, expectedTime - System.currentTimeMillis()));
+    }
+
+    // Même enchaînement que BubbleService.captureAndTranslate()
+    private void captureAndTranslate(long tapTime) {
+        if (!capturePipeline.beginCapture(System.currentTimeMillis())) {
+            return;
+        }
+        pendingFrames.incrementAndGet();
+
+        mainThread.postDelayed(() -> {
+            SyntheticFrameSource.Frame frame = frameSource.next();
+            long processTime = System.currentTimeMillis();
+            int captureId = capturePipeline.process(frame, frame.width, frame.height, profile);
+            traces.put(captureId, new FrameTrace(captureId, tapTime, processTime));
+        }, CapturePipeline.CAPTURE_DELAY_MS);
+    }
+
+    // Comme BubbleService, les blocs d'une capture dépassée ne sont pas dessinés
+    private void drawTranslation(int captureId, String layout, TextRegion region) {
+        FrameTrace trace = traces.get(captureId);
+        if (captureId != displayedCaptureId) {
+            dropStaleBlock(trace);
+            return;
+        }
+        FakeMlKit.sleep(config.renderPerBlockMs);
+        long now = System.currentTimeMillis();
+        lastRenderTime.set(now);
+        renderedBlocks.incrementAndGet();
+        blockLatency.record(now - trace.tapTime);
+        if (--trace.remainingBlocks == 0) {
+            completeFrame(trace);
+        }
+    }
+
+    private void dropStaleBlock(FrameTrace trace) {
+        staleBlocks.incrementAndGet();
+        if (--trace.remainingBlocks == 0) {
+            completeFrame(trace);
+        }
+    }
+
+    private void completeFrame(FrameTrace trace) {
+        frameLatency.record(System.currentTimeMillis() - trace.tapTime);
+        completedFrames.incrementAndGet();
+        pendingFrames.decrementAndGet();
+        traces.remove(trace.captureId);
+    }
+
+    private final class StandInHost implements CapturePipeline.Host<SyntheticFrameSource.Frame> {
+        @Override
+        public void onTextRecognized(int captureId, int blockCount) {
+            FrameTrace trace = traces.get(captureId);
+            displayedCaptureId = captureId;
+            ocrLatency.record(System.currentTimeMillis() - trace.processTime);
+            processedFrames.incrementAndGet();
+            recognizedBlocks.addAndGet(blockCount);
+            trace.remainingBlocks = blockCount;
+            if (blockCount == 0) {
+                completeFrame(trace);
+            }
+        }
+
+        @Override
+        public void render(int captureId, String translatedText, TextRegion region) {
+            if (captureId != displayedCaptureId) {
+                dropStaleBlock(traces.get(captureId));
+                return;
+            }
+            translationRenderer.show(captureId, translatedText, region, config.frameWidth);
+        }
+
+        @Override
+        public void onProfileChanged(ScreenProfile profile) {
+        }
+
+        @Override
+        public void releaseFrame(SyntheticFrameSource.Frame frame) {
+        }
+
+        @Override
+        public void showMessage(String message) {
+            messages.merge(message, 1, Integer::sum);
+        }
+
+        @Override
+        public void logDebug(String message) {
+        }
+
+        @Override
+        public void logError(String message, Exception e) {
+            System.err.println(message + ": " + e);
+        }
+    }
+
+    /**
+     * Cache de mises en page dont le calcul ne fait qu'attendre la durée configurée.
+     */
+    static final class StandInLayoutCache extends LayoutCache<String> {
+        private final int layoutMs;
+        final AtomicInteger hits = new AtomicInteger();
+        final AtomicInteger builds = new AtomicInteger();
+
+        StandInLayoutCache(Executor mainThread, int layoutMs) {
+            super(DEFAULT_MAX_ENTRIES, mainThread);
+            this.layoutMs = layoutMs;
+        }
+
+        @Override
+        public String get(LayoutKey key) {
+            String layout = super.get(key);
+            if (layout != null) {
+                hits.incrementAndGet();
+            }
+            return layout;
+        }
+
+        @Override
+        protected String buildLayout(LayoutKey key) {
+            FakeMlKit.sleep(layoutMs);
+            builds.incrementAndGet();
+            return key.text;
+        }
+    }
+
+    private static final class FrameTrace {
+        final int captureId;
+        final long tapTime;
+        final long processTime;
+        int remainingBlocks;
+
+        FrameTrace(int captureId, long tapTime, long processTime) {
+            this.captureId = captureId;
+            this.tapTime = tapTime;
+            this.processTime = processTime;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.translator.loadtest;
+
+import com.translator.pipeline.RecognizedBlock;
+import com.translator.pipeline.TextRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Génère des captures synthétiques : un tampon RGBA de la taille de l'écran et
+ * les blocs de texte qu'y trouverait l'OCR, dont une part fixe (textes statiques
+ * de l'interface). Les blocs sont disposés sur deux colonnes dans le haut de l'écran.
+ */
+final class SyntheticFrameSource {
+    private static final int COLUMNS = 2;
+    private static final int BLOCK_GAP = 4;
+
+    static final class Frame {
+        final byte[] pixels;
+        final int width;
+        final int height;
+        final List<RecognizedBlock> blocks;
+
+        Frame(byte[] pixels, int width, int height, List<RecognizedBlock> blocks) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.blocks = blocks;
+        }
+    }
+
+    private final LoadTestConfig config;
+    private final Random random;
+    private final byte[] screenBuffer;
+    private final List<TextRegion> slots = new ArrayList<>();
+    private final int staticCount;
+    private int frameCount = 0;
+
+    SyntheticFrameSource(LoadTestConfig config, Random random) {
+        this.config = config;
+        this.random = random;
+        this.screenBuffer = new byte[config.frameWidth * config.frameHeight * 4];
+        random.nextBytes(screenBuffer);
+        this.staticCount = (int) Math.round(config.blocksPerFrame * config.staticTextRatio);
+
+        int rows = Math.max(1, (config.blocksPerFrame + COLUMNS - 1) / COLUMNS);
+        int rowHeight = Math.max(1, (int) (config.frameHeight * config.textAreaRatio) / rows);
+        int columnWidth = config.frameWidth / COLUMNS;
+        for (int i = 0; i < config.blocksPerFrame; i++) {
+            int left = (i % COLUMNS) * columnWidth + BLOCK_GAP;
+            int top = (i / COLUMNS) * rowHeight;
+            slots.add(new TextRegion(left, top, left + columnWidth - 2 * BLOCK_GAP, top + Math.max(1, rowHeight - BLOCK_GAP)));
+        }
+    }
+
+    /**
+     * Équivalent de acquireLatestImage() suivi de imageToBitmap() : copie complète du tampon.
+     */
+    synchronized Frame next() {
+        frameCount++;
+        byte[] pixels = new byte[screenBuffer.length];
+        System.arraycopy(screenBuffer, 0, pixels, 0, screenBuffer.length);
+
+        List<RecognizedBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            String text = i < staticCount
+                ? "Menu item " + i
+                : "Message " + frameCount + "-" + Integer.toHexString(random.nextInt());
+            blocks.add(new RecognizedBlock(text, slots.get(i)));
+        }
+        return new Frame(pixels, config.frameWidth, config.frameHeight, blocks);
+    }
+}